@@ -0,0 +1,399 @@
+package me.joniybek.avro;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.AvroTypeException;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.apache.avro.util.Utf8;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonStreamContext;
+import org.codehaus.jackson.JsonToken;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Streaming decoder building records of a target schema straight from JSON or delimited text.
+ * Values go through the same coercions and alias matching as {@link AvroTypeConversion}, without an
+ * intermediate tree: only the record being decoded is held in memory.
+ */
+public abstract class AvroTextDecoder implements Iterator<GenericRecord>, Closeable {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    protected final Schema targetSchema;
+
+    private final Map<Schema, Map<String, Schema.Field>> lookups = new IdentityHashMap<>();
+    private GenericRecord next;
+
+    /**
+     * Reads JSON objects one after another (newline-delimited or concatenated), or the elements of a
+     * single top-level JSON array.
+     */
+    public static AvroTextDecoder json( final Reader in, final Schema targetSchema ) throws AvroRuntimeException {
+        try {
+            return new Json( JSON_FACTORY.createJsonParser( in ), targetSchema );
+        } catch( IOException e ) {
+            throw new AvroRuntimeException( e );
+        }
+    }
+
+    public static AvroTextDecoder json( final InputStream in, final Schema targetSchema )
+            throws AvroRuntimeException {
+        try {
+            return new Json( JSON_FACTORY.createJsonParser( in ), targetSchema );
+        } catch( IOException e ) {
+            throw new AvroRuntimeException( e );
+        }
+    }
+
+    /**
+     * Reads delimited text whose first row is a header naming the columns. Cells may be wrapped in double
+     * quotes. A quoted empty cell is an empty string; an unquoted empty or missing cell is an empty string for a
+     * {@code string} field and null (so the default, if any) for any other type, nullable unions included.
+     */
+    public static AvroTextDecoder delimited( final Reader in, final Schema targetSchema, final char delimiter )
+            throws AvroRuntimeException {
+        return new Delimited( in, targetSchema, delimiter );
+    }
+
+    public static AvroTextDecoder delimited( final InputStream in, final Schema targetSchema,
+            final char delimiter ) throws AvroRuntimeException {
+        return new Delimited( new InputStreamReader( in, StandardCharsets.UTF_8 ), targetSchema, delimiter );
+    }
+
+    private AvroTextDecoder( final Schema targetSchema ) {
+        if( targetSchema.getType() != Schema.Type.RECORD )
+            throw new RuntimeException( "Head of avro schema hierarchy should be a RECORD!" );
+        this.targetSchema = targetSchema;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if( next == null ) {
+            try {
+                next = readNext();
+            } catch( IOException e ) {
+                throw new AvroRuntimeException( e );
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public GenericRecord next() {
+        if( !hasNext() )
+            throw new NoSuchElementException();
+        final GenericRecord record = next;
+        next = null;
+        return record;
+    }
+
+    /**
+     * @return next decoded record, or null at the end of input
+     */
+    protected abstract GenericRecord readNext() throws IOException;
+
+    static Object convertText( final Schema fieldSchema, final String text, final Object defaultVal,
+            final boolean isNullable ) {
+        if( text == null )
+            return AvroTypeConversion.convertObj( fieldSchema, null, defaultVal,
+                    isNullable || isNullableUnion( fieldSchema ) );
+
+        switch( fieldSchema.getType() ) {
+            case UNION:
+                return convertText( AvroTypeConversion.resolveUnion( fieldSchema ), text, null, true );
+            case BYTES:
+                return AvroTypeConversion.convertObj( fieldSchema, new Utf8( text ), defaultVal, isNullable );
+            case FIXED:
+                return AvroTypeConversion.convertObj( fieldSchema,
+                        new GenericData.Fixed( fieldSchema, text.getBytes( StandardCharsets.UTF_8 ) ), defaultVal,
+                        isNullable );
+            default:
+                return AvroTypeConversion.convertObj( fieldSchema, text, defaultVal, isNullable );
+        }
+    }
+
+    static boolean isNullableUnion( final Schema fieldSchema ) {
+        return fieldSchema.getType() == Schema.Type.UNION
+                && fieldSchema.getTypes().stream().anyMatch( x -> x.getType() == Schema.Type.NULL );
+    }
+
+    /**
+     * Field names and aliases of a record schema, names taking precedence over aliases.
+     */
+    Map<String, Schema.Field> fieldLookup( final Schema schema ) {
+        return lookups.computeIfAbsent( schema, s -> {
+            final Map<String, Schema.Field> lookup = new HashMap<>();
+            for( Schema.Field field : s.getFields() )
+                for( String alias : field.aliases() )
+                    lookup.putIfAbsent( alias, field );
+            for( Schema.Field field : s.getFields() )
+                lookup.put( field.name(), field );
+            return lookup;
+        } );
+    }
+
+    /**
+     * Not {@link NoSuchElementException} as in {@link AvroTypeConversion#convertRecord}: from an iterator that
+     * would read as the end of input.
+     */
+    static AvroTypeException missingField( final Schema.Field field ) {
+        return new AvroTypeException( AvroTypeConversion.missingFieldMessage( field ) );
+    }
+
+    private static final class Json extends AvroTextDecoder {
+
+        private final JsonParser parser;
+        private boolean          started;
+        private boolean          inArray;
+
+        private Json( final JsonParser parser, final Schema targetSchema ) {
+            super( targetSchema );
+            this.parser = parser;
+        }
+
+        @Override
+        protected GenericRecord readNext() throws IOException {
+            JsonToken token = parser.nextToken();
+            if( !started ) {
+                started = true;
+                if( token == JsonToken.START_ARRAY ) {
+                    inArray = true;
+                    token = parser.nextToken();
+                }
+            }
+            if( token == null || ( inArray && token == JsonToken.END_ARRAY ) )
+                return null;
+
+            final JsonStreamContext outside = token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY
+                    ? parser.getParsingContext().getParent()
+                    : parser.getParsingContext();
+            try {
+                return readRecord( targetSchema );
+            } catch( RuntimeException e ) {
+                // Leave the parser past the failed value so the next call starts on the following record
+                while( parser.getParsingContext() != outside && parser.nextToken() != null ) {
+                }
+                throw e;
+            }
+        }
+
+        private Object readValue( final Schema fieldSchema, final Object defaultVal, final boolean isNullable )
+                throws IOException {
+            switch( parser.getCurrentToken() ) {
+                case START_OBJECT:
+                case START_ARRAY:
+                    return readStructured( fieldSchema );
+                case VALUE_NULL:
+                    return convertText( fieldSchema, null, defaultVal, isNullable );
+                default:
+                    return convertText( fieldSchema, parser.getText(), defaultVal, isNullable );
+            }
+        }
+
+        private Object readStructured( final Schema fieldSchema ) throws IOException {
+            switch( fieldSchema.getType() ) {
+                case UNION:
+                    return readStructured( AvroTypeConversion.resolveUnion( fieldSchema ) );
+                case RECORD:
+                    return readRecord( fieldSchema );
+                case ARRAY:
+                    return readArray( fieldSchema );
+                case MAP:
+                    return readMap( fieldSchema );
+                default:
+                    throw new ClassCastException( String.format( "Cannot cast field: %s; to %s",
+                            fieldSchema.getName(), fieldSchema.getType() ) );
+            }
+        }
+
+        private GenericRecord readRecord( final Schema schema ) throws IOException {
+            expect( JsonToken.START_OBJECT, schema );
+            final Map<String, Schema.Field> lookup = fieldLookup( schema );
+            final Object[] values = new Object[schema.getFields().size()];
+            final boolean[] seen = new boolean[values.length];
+            while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+                final String name = parser.getCurrentName();
+                final Schema.Field field = lookup.get( name );
+                parser.nextToken();
+                // First alias match wins unless the exact field name shows up as well
+                if( field == null || ( seen[field.pos()] && !field.name().equals( name ) ) ) {
+                    parser.skipChildren();
+                    continue;
+                }
+                values[field.pos()] = readValue( field.schema(), field.defaultVal(), false );
+                seen[field.pos()] = true;
+            }
+
+            final GenericRecordBuilder rb = new GenericRecordBuilder( schema );
+            for( Schema.Field field : schema.getFields() ) {
+                if( !seen[field.pos()] )
+                    throw missingField( field );
+                rb.set( field.name(), values[field.pos()] );
+            }
+            return rb.build();
+        }
+
+        private GenericData.Array<Object> readArray( final Schema schema ) throws IOException {
+            expect( JsonToken.START_ARRAY, schema );
+            final GenericData.Array<Object> to = new GenericData.Array<>( 10, schema );
+            while( parser.nextToken() != JsonToken.END_ARRAY ) {
+                to.add( readValue( schema.getElementType(), null, false ) );
+            }
+            return to;
+        }
+
+        private Map<String, Object> readMap( final Schema schema ) throws IOException {
+            expect( JsonToken.START_OBJECT, schema );
+            final Map<String, Object> to = new HashMap<>();
+            while( parser.nextToken() == JsonToken.FIELD_NAME ) {
+                final String key = parser.getCurrentName();
+                parser.nextToken();
+                to.put( key, readValue( schema.getValueType(), null, false ) );
+            }
+            return to;
+        }
+
+        private void expect( final JsonToken token, final Schema schema ) {
+            if( parser.getCurrentToken() != token )
+                throw new AvroTypeException( String.format( "Expected %s got: %s ; at Schema field name: %s",
+                        token, parser.getCurrentToken(), schema.getName() ) );
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+
+    private static final class Delimited extends AvroTextDecoder {
+
+        private static final char QUOTE = '"';
+
+        private final Reader        in;
+        private final char          delimiter;
+        private final char[]        buf  = new char[8192];
+        private final StringBuilder cell = new StringBuilder();
+        private int                 pos;
+        private int                 limit;
+        private boolean             cellQuoted;
+        private int[]               columns;
+
+        private Delimited( final Reader in, final Schema targetSchema, final char delimiter ) {
+            super( targetSchema );
+            this.in = in;
+            this.delimiter = delimiter;
+        }
+
+        @Override
+        protected GenericRecord readNext() throws IOException {
+            if( columns == null )
+                columns = readHeader();
+            final List<String> row = readRow();
+            if( row == null )
+                return null;
+
+            final GenericRecordBuilder rb = new GenericRecordBuilder( targetSchema );
+            for( Schema.Field field : targetSchema.getFields() ) {
+                final int column = columns[field.pos()];
+                final String text = column < row.size() ? row.get( column ) : null;
+                rb.set( field.name(), convertText( field.schema(),
+                        text == null && field.schema().getType() == Schema.Type.STRING ? "" : text,
+                        field.defaultVal(), false ) );
+            }
+            return rb.build();
+        }
+
+        private int[] readHeader() throws IOException {
+            final List<String> header = readRow();
+            if( header == null )
+                throw new AvroRuntimeException( "Delimited input has no header row" );
+
+            final Map<String, Schema.Field> lookup = fieldLookup( targetSchema );
+            final int[] found = new int[targetSchema.getFields().size()];
+            Arrays.fill( found, -1 );
+            for( int i = 0; i < header.size(); i++ ) {
+                final Schema.Field field = lookup.get( header.get( i ) );
+                if( field != null && ( found[field.pos()] < 0 || field.name().equals( header.get( i ) ) ) )
+                    found[field.pos()] = i;
+            }
+            for( Schema.Field field : targetSchema.getFields() ) {
+                if( found[field.pos()] < 0 )
+                    throw missingField( field );
+            }
+            return found;
+        }
+
+        /**
+         * @return cells of the next non-blank row, unquoted empty cells as null; or null at the end of input
+         */
+        private List<String> readRow() throws IOException {
+            int c = read();
+            while( c == '\n' || c == '\r' )
+                c = read();
+            if( c == -1 )
+                return null;
+
+            final List<String> row = new ArrayList<>( columns == null ? 10 : columns.length );
+            boolean quoted = false;
+            while( true ) {
+                if( quoted ) {
+                    if( c == -1 )
+                        throw new AvroRuntimeException( "Unterminated quoted value in delimited input" );
+                    if( c == QUOTE ) {
+                        c = read();
+                        if( c != QUOTE ) {
+                            quoted = false;
+                            continue;
+                        }
+                    }
+                    cell.append( (char) c );
+                } else if( c == delimiter ) {
+                    row.add( takeCell() );
+                } else if( c == '\n' || c == '\r' || c == -1 ) {
+                    row.add( takeCell() );
+                    return row;
+                } else if( c == QUOTE && cell.length() == 0 && !cellQuoted ) {
+                    quoted = true;
+                    cellQuoted = true;
+                } else {
+                    cell.append( (char) c );
+                }
+                c = read();
+            }
+        }
+
+        private String takeCell() {
+            final String value = cell.length() == 0 && !cellQuoted ? null : cell.toString();
+            cell.setLength( 0 );
+            cellQuoted = false;
+            return value;
+        }
+
+        private int read() throws IOException {
+            if( pos == limit ) {
+                limit = in.read( buf, 0, buf.length );
+                pos = 0;
+                if( limit <= 0 ) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buf[pos++];
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
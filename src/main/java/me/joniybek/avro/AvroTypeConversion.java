@@ -136,24 +136,25 @@ public class AvroTypeConversion {
     }
 
     static Object convertUnion( final Object obj, final Schema fieldSchema, final boolean initiallyIsNullable ) {
-        final List<Schema> fields = fieldSchema.getTypes();
-        if( fields.stream().anyMatch( x -> x.getType() == Schema.Type.NULL ) ) {
-            final List<Schema> remaining =
-                    fields.stream().filter( x -> x.getType() != Schema.Type.NULL ).collect( Collectors.toList() );
-            if( remaining.size() == 1 )
-                return convertObj( remaining.get( 0 ), obj, null, true );
-            else
-                return convertObj( Schema.createUnion( remaining ), obj, null, true );
+        final Schema resolved = resolveUnion( fieldSchema );
+        if( fieldSchema.getTypes().stream().anyMatch( x -> x.getType() == Schema.Type.NULL ) )
+            return convertObj( resolved, obj, null, true );
+        else
+            return convertObj( resolved, obj, initiallyIsNullable );
+    }
 
-        } else {
-            if( fields.stream()
-                    .allMatch( x -> Arrays.asList( Schema.Type.INT, Schema.Type.LONG ).contains( x.getType() ) ) )
-                return convertObj( Schema.create( Schema.Type.LONG ), obj, initiallyIsNullable );
-            else if( fields.stream()
-                    .allMatch( x -> Arrays.asList( Schema.Type.FLOAT, Schema.Type.DOUBLE ).contains( x.getType() ) ) ) {
-                return convertObj( Schema.create( Schema.Type.DOUBLE ), obj, initiallyIsNullable );
-            }
-        }
+    static Schema resolveUnion( final Schema fieldSchema ) {
+        final List<Schema> fields = fieldSchema.getTypes();
+        final List<Schema> remaining =
+                fields.stream().filter( x -> x.getType() != Schema.Type.NULL ).collect( Collectors.toList() );
+        if( remaining.size() == 1 && remaining.size() != fields.size() )
+            return remaining.get( 0 );
+        else if( remaining.stream()
+                .allMatch( x -> Arrays.asList( Schema.Type.INT, Schema.Type.LONG ).contains( x.getType() ) ) )
+            return Schema.create( Schema.Type.LONG );
+        else if( remaining.stream()
+                .allMatch( x -> Arrays.asList( Schema.Type.FLOAT, Schema.Type.DOUBLE ).contains( x.getType() ) ) )
+            return Schema.create( Schema.Type.DOUBLE );
 
         throw new UnsupportedOperationException( String.format( "No implementation for unions for field: %s  " +
                 "with types: %s", fieldSchema.getName(), Arrays.toString( fieldSchema.getTypes().toArray() ) ) );
@@ -167,14 +168,18 @@ public class AvroTypeConversion {
         for( Schema.Field field : schema.getFields() ) {
             Optional node = getGenRecFieldValue( field, (GenericRecord) innersource );
             if( !node.isPresent() )
-                throw new NoSuchElementException( String.format( "No such element named(alias): %s, " +
-                        "alias:%s", field.name(), Arrays.toString( field.aliases().toArray() ) ) );
+                throw new NoSuchElementException( missingFieldMessage( field ) );
             irb.set( field.name(), convertObj( field.schema(), node.get(), field.defaultVal() ) );
         }
         return irb.build();
 
     }
 
+    static String missingFieldMessage( final Schema.Field field ) {
+        return String.format( "No such element named(alias): %s, " +
+                "alias:%s", field.name(), Arrays.toString( field.aliases().toArray() ) );
+    }
+
     static Boolean convertBool( final Object value, final Schema schema ) {
         return tryCast( () -> {
             switch( value.toString().toUpperCase() ) {
@@ -0,0 +1,259 @@
+package me.joniybek.avro;
+
+import org.apache.avro.AvroTypeException;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.hamcrest.core.Is.is;
+
+public class AvroTextDecoderTest {
+
+    private static Schema subSchema;
+    private static Schema readerSchema;
+
+    @Before
+    public void setup() {
+        subSchema = Schema.createRecord( "Sub", null, "test", false );
+        subSchema.setFields( Arrays.asList(
+                new Schema.Field( "inCol1", Schema.create( Schema.Type.INT ), "doc", null ) ) );
+
+        readerSchema = Schema.createRecord( "Reader", null, "test", false );
+        readerSchema.setFields( Arrays.asList(
+                new Schema.Field( "notCol1", Schema.create( Schema.Type.STRING ), "doc", null ),
+                new Schema.Field( "col2", Schema.createUnion( Arrays.asList(
+                        Schema.create( Schema.Type.NULL ), Schema.create( Schema.Type.LONG ) ) ), "doc", null ),
+                new Schema.Field( "col3", Schema.create( Schema.Type.BOOLEAN ), "doc", null ),
+                new Schema.Field( "col4", Schema.createEnum( "EnumType", null, null,
+                        Arrays.asList( "A1", "b2", "c_3" ) ), "doc", null )
+        ) );
+        readerSchema.getField( "notCol1" ).addAlias( "col1" );
+    }
+
+    static List<GenericRecord> readAll( AvroTextDecoder decoder ) {
+        final List<GenericRecord> out = new ArrayList<>();
+        decoder.forEachRemaining( out::add );
+        return out;
+    }
+
+    @Test
+    public void json_newlineDelimited() throws Exception {
+        List<GenericRecord> records = readAll( AvroTextDecoder.json( new StringReader(
+                "{\"col1\": \"record1\", \"col2\": \"1\", \"col3\": \"True\", \"col4\": \"c_3\", \"extra\": [1, {}]}\n" +
+                        "{\"col4\": \"A1\", \"col3\": false, \"col2\": null, \"notCol1\": 2}\n" ), readerSchema ) );
+
+        Assert.assertThat( records.size(), is( 2 ) );
+        Assert.assertThat( records.get( 0 ).get( "notCol1" ), is( "record1" ) );
+        Assert.assertThat( records.get( 0 ).get( "col2" ), is( 1L ) );
+        Assert.assertThat( records.get( 0 ).get( "col3" ), is( true ) );
+        Assert.assertThat( records.get( 0 ).get( "col4" ),
+                is( new GenericData.EnumSymbol( readerSchema.getField( "col4" ).schema(), "c_3" ) ) );
+        Assert.assertThat( records.get( 1 ).get( "notCol1" ), is( "2" ) );
+        Assert.assertNull( records.get( 1 ).get( "col2" ) );
+        Assert.assertThat( records.get( 1 ).get( "col3" ), is( false ) );
+    }
+
+    @Test
+    public void json_topLevelArray() throws Exception {
+        List<GenericRecord> records = readAll( AvroTextDecoder.json( new StringReader(
+                "[{\"col1\": \"a\", \"col2\": 7, \"col3\": true, \"col4\": \"b2\"}," +
+                        " {\"col1\": \"b\", \"col2\": \"8\", \"col3\": \"FALSE\", \"col4\": \"A1\"}]" ),
+                readerSchema ) );
+
+        Assert.assertThat( records.size(), is( 2 ) );
+        Assert.assertThat( records.get( 1 ).get( "notCol1" ), is( "b" ) );
+        Assert.assertThat( records.get( 1 ).get( "col2" ), is( 8L ) );
+    }
+
+    @Test
+    public void json_nested() throws Exception {
+        Schema schema = Schema.createRecord( "Nested", null, "test", false );
+        schema.setFields( Arrays.asList(
+                new Schema.Field( "sub", subSchema, "doc", null ),
+                new Schema.Field( "arr", Schema.createArray( Schema.create( Schema.Type.LONG ) ), "doc", null ),
+                new Schema.Field( "map", Schema.createMap( Schema.create( Schema.Type.DOUBLE ) ), "doc", null ),
+                new Schema.Field( "bytes", Schema.create( Schema.Type.BYTES ), "doc", null )
+        ) );
+
+        GenericRecord record = AvroTextDecoder.json( new StringReader(
+                "{\"sub\": {\"inCol1\": \"5\"}, \"arr\": [\"1\", 2], \"map\": {\"key\": \"1.5\"}, \"bytes\": \"test\"}" ),
+                schema ).next();
+
+        Assert.assertThat( ( (GenericRecord) record.get( "sub" ) ).get( "inCol1" ), is( 5 ) );
+        Assert.assertThat( ( (List) record.get( "arr" ) ).get( 1 ), is( 2L ) );
+        Assert.assertThat( ( (Map) record.get( "map" ) ).get( "key" ), is( 1.5D ) );
+        Assert.assertThat( record.get( "bytes" ), is( ByteBuffer.wrap( "test".getBytes() ) ) );
+    }
+
+    @Test
+    public void json_concatenatedFromStream() throws Exception {
+        List<GenericRecord> records = readAll( AvroTextDecoder.json( new ByteArrayInputStream(
+                ( "{\"col1\": \"a\", \"col2\": 1, \"col3\": true, \"col4\": \"b2\"}" +
+                        "{\"col1\": \"\u00e9\", \"col2\": 2, \"col3\": true, \"col4\": \"b2\"} " +
+                        "{\"col1\": \"c\", \"col2\": 3, \"col3\": true, \"col4\": \"b2\"}" )
+                        .getBytes( StandardCharsets.UTF_8 ) ), readerSchema ) );
+
+        Assert.assertThat( records.size(), is( 3 ) );
+        Assert.assertThat( records.get( 1 ).get( "notCol1" ), is( "\u00e9" ) );
+        Assert.assertThat( records.get( 2 ).get( "col2" ), is( 3L ) );
+    }
+
+    @Test
+    public void json_nameBeatsAlias() throws Exception {
+        List<GenericRecord> records = readAll( AvroTextDecoder.json( new StringReader(
+                "{\"col1\": \"alias\", \"notCol1\": \"name\", \"col2\": 1, \"col3\": true, \"col4\": \"b2\"}\n" +
+                        "{\"notCol1\": \"name\", \"col1\": \"alias\", \"col2\": 1, \"col3\": true, \"col4\": \"b2\"}\n" ),
+                readerSchema ) );
+
+        Assert.assertThat( records.size(), is( 2 ) );
+        Assert.assertThat( records.get( 0 ).get( "notCol1" ), is( "name" ) );
+        Assert.assertThat( records.get( 1 ).get( "notCol1" ), is( "name" ) );
+    }
+
+    @Test
+    public void json_recordInsideNullableUnion() throws Exception {
+        Schema schema = Schema.createRecord( "Outer", null, "test", false );
+        schema.setFields( Arrays.asList(
+                new Schema.Field( "maybeSub", Schema.createUnion( Arrays.asList(
+                        Schema.create( Schema.Type.NULL ), subSchema ) ), "doc", null ),
+                new Schema.Field( "sub", subSchema, "doc", null )
+        ) );
+
+        List<GenericRecord> records = readAll( AvroTextDecoder.json( new StringReader(
+                "{\"maybeSub\": {\"inCol1\": \"1\"}, \"sub\": {\"inCol1\": 2}}\n" +
+                        "{\"maybeSub\": null, \"sub\": {\"inCol1\": \"3\"}}\n" ), schema ) );
+
+        Assert.assertThat( records.size(), is( 2 ) );
+        Assert.assertThat( ( (GenericRecord) records.get( 0 ).get( "maybeSub" ) ).get( "inCol1" ), is( 1 ) );
+        Assert.assertThat( ( (GenericRecord) records.get( 0 ).get( "sub" ) ).get( "inCol1" ), is( 2 ) );
+        Assert.assertNull( records.get( 1 ).get( "maybeSub" ) );
+        Assert.assertThat( ( (GenericRecord) records.get( 1 ).get( "sub" ) ).get( "inCol1" ), is( 3 ) );
+    }
+
+    @Test(
+            expected = AvroTypeException.class )
+    public void json_failMissingField() throws Exception {
+        AvroTextDecoder.json( new StringReader( "{\"col1\": \"a\", \"col3\": true, \"col4\": \"b2\"}" ),
+                readerSchema ).next();
+    }
+
+    @Test(
+            expected = Exception.class )
+    public void json_failNotParsable() throws Exception {
+        AvroTextDecoder.json( new StringReader(
+                "{\"col1\": \"a\", \"col2\": \"not parsable\", \"col3\": true, \"col4\": \"b2\"}" ),
+                readerSchema ).next();
+    }
+
+    @Test
+    public void json_recoversAfterFailedRecord() throws Exception {
+        AvroTextDecoder decoder = AvroTextDecoder.json( new StringReader(
+                "{\"col1\": \"a\", \"col2\": \"not parsable\", \"col3\": true, \"col4\": \"b2\", " +
+                        "\"extra\": {\"deep\": [1, {\"x\": 2}]}}\n" +
+                        "{\"col1\": \"b\", \"col2\": 3, \"col3\": true, \"col4\": \"b2\"}\n" ), readerSchema );
+        try {
+            decoder.next();
+            Assert.fail( "First record should not convert" );
+        } catch( NumberFormatException e ) {
+            // expected
+        }
+        Assert.assertThat( decoder.hasNext(), is( true ) );
+        GenericRecord record = decoder.next();
+        Assert.assertThat( record.get( "notCol1" ), is( "b" ) );
+        Assert.assertThat( record.get( "col2" ), is( 3L ) );
+        Assert.assertThat( decoder.hasNext(), is( false ) );
+    }
+
+    @Test
+    public void delimited_succ() throws Exception {
+        List<GenericRecord> records = readAll( AvroTextDecoder.delimited( new StringReader(
+                "col4,extra,col1,col2,col3\r\n" +
+                        "c_3,x,\"quoted, \"\"value\"\"\",-777,true\r\n" +
+                        "\n" +
+                        "A1,,plain,,False\n" ), readerSchema, ',' ) );
+
+        Assert.assertThat( records.size(), is( 2 ) );
+        Assert.assertThat( records.get( 0 ).get( "notCol1" ), is( "quoted, \"value\"" ) );
+        Assert.assertThat( records.get( 0 ).get( "col2" ), is( -777L ) );
+        Assert.assertThat( records.get( 0 ).get( "col3" ), is( true ) );
+        Assert.assertNull( records.get( 1 ).get( "col2" ) );
+        Assert.assertThat( records.get( 1 ).get( "col3" ), is( false ) );
+    }
+
+    @Test
+    public void delimited_multiLineQuotedCellFromStream() throws Exception {
+        List<GenericRecord> records = readAll( AvroTextDecoder.delimited( new ByteArrayInputStream(
+                ( "col1;col2;col3;col4\n" +
+                        "\"first\nsecond\r\nthird\";1;true;A1\n" +
+                        "\u00e9;2;false;b2\n" ).getBytes( StandardCharsets.UTF_8 ) ), readerSchema, ';' ) );
+
+        Assert.assertThat( records.size(), is( 2 ) );
+        Assert.assertThat( records.get( 0 ).get( "notCol1" ), is( "first\nsecond\r\nthird" ) );
+        Assert.assertThat( records.get( 0 ).get( "col2" ), is( 1L ) );
+        Assert.assertThat( records.get( 1 ).get( "notCol1" ), is( "\u00e9" ) );
+    }
+
+    @Test
+    public void delimited_nameBeatsAlias() throws Exception {
+        GenericRecord aliasFirst = AvroTextDecoder.delimited( new StringReader(
+                "col1,notCol1,col2,col3,col4\nalias,name,1,true,A1\n" ), readerSchema, ',' ).next();
+        GenericRecord nameFirst = AvroTextDecoder.delimited( new StringReader(
+                "notCol1,col1,col2,col3,col4\nname,alias,1,true,A1\n" ), readerSchema, ',' ).next();
+
+        Assert.assertThat( aliasFirst.get( "notCol1" ), is( "name" ) );
+        Assert.assertThat( nameFirst.get( "notCol1" ), is( "name" ) );
+    }
+
+    @Test
+    public void delimited_emptyCells() throws Exception {
+        Schema schema = Schema.createRecord( "Empty", null, "test", false );
+        schema.setFields( Arrays.asList(
+                new Schema.Field( "str", Schema.create( Schema.Type.STRING ), "doc", null ),
+                new Schema.Field( "nullableStr", Schema.createUnion( Arrays.asList(
+                        Schema.create( Schema.Type.NULL ), Schema.create( Schema.Type.STRING ) ) ), "doc", null ),
+                new Schema.Field( "num", Schema.create( Schema.Type.INT ), "doc", 42 )
+        ) );
+
+        List<GenericRecord> records = readAll( AvroTextDecoder.delimited( new StringReader(
+                "str,nullableStr,num\n" +
+                        "\"\",\"\",1\n" +
+                        ",,\n" +
+                        "a\n" ), schema, ',' ) );
+
+        Assert.assertThat( records.size(), is( 3 ) );
+        // Quoted empty cells are empty strings
+        Assert.assertThat( records.get( 0 ).get( "str" ), is( "" ) );
+        Assert.assertThat( records.get( 0 ).get( "nullableStr" ), is( "" ) );
+        // Unquoted empty cells are empty strings only for plain strings, otherwise null or the default
+        Assert.assertThat( records.get( 1 ).get( "str" ), is( "" ) );
+        Assert.assertNull( records.get( 1 ).get( "nullableStr" ) );
+        Assert.assertThat( records.get( 1 ).get( "num" ), is( 42 ) );
+        // Missing trailing cells read like unquoted empty ones
+        Assert.assertThat( records.get( 2 ).get( "str" ), is( "a" ) );
+        Assert.assertNull( records.get( 2 ).get( "nullableStr" ) );
+        Assert.assertThat( records.get( 2 ).get( "num" ), is( 42 ) );
+    }
+
+    @Test(
+            expected = AvroTypeException.class )
+    public void delimited_failMissingColumn() throws Exception {
+        AvroTextDecoder.delimited( new StringReader( "col1\tcol2\tcol3\na\t1\ttrue\n" ), readerSchema, '\t' )
+                .next();
+    }
+
+    @Test(
+            expected = Exception.class )
+    public void decoder_failNotRecord() throws Exception {
+        AvroTextDecoder.json( new StringReader( "{}" ), Schema.create( Schema.Type.STRING ) );
+    }
+
+}